@@ -2,37 +2,96 @@ package javaapplication3;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.table.AbstractTableModel;
 import java.sql.*;
 import com.mysql.cj.jdbc.Driver;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 // Interface for books
 interface IBook {
     String getTitle();
     String getAuthor();
     String getCategory();
-    void setTitle(String title);
-    void setAuthor(String author);
 }
 
 // Singleton Pattern
+// Replicas are configured with system properties:
+//   library.db.replicas               comma-separated JDBC URLs (none by default)
+//   library.db.replicaStickyMillis    how long reads stay on the primary after a write
+//   library.db.healthCheckSeconds     interval between replica health checks
 class DatabaseConnection {
+    private static final String URL =
+        "jdbc:mysql://localhost:3306/library_management?createDatabaseIfNotExist=true&rewriteBatchedStatements=true";
+    private static final String USER = "root";
+    private static final String PASSWORD = "";
+
     private static volatile DatabaseConnection instance;
     private Connection connection;
+    private ReadReplicaRouter readRouter;
     
     private DatabaseConnection() {
         try {
             DriverManager.registerDriver(new Driver());
-            connection = DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/library_management?createDatabaseIfNotExist=true",
-                "root",
-                ""
-            );
+            connection = DriverManager.getConnection(URL, USER, PASSWORD);
             System.out.println("Database Connected");
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to the database: " + e.getMessage(), e);
         }
+
+        List<String> replicaUrls = new ArrayList<>();
+        for (String url : System.getProperty("library.db.replicas", "").split(",")) {
+            if (!url.trim().isEmpty()) {
+                replicaUrls.add(url.trim());
+            }
+        }
+        readRouter = new ReadReplicaRouter(connection, replicaUrls, USER, PASSWORD,
+            Long.getLong("library.db.replicaStickyMillis", 5000));
+        readRouter.startHealthChecks(Long.getLong("library.db.healthCheckSeconds", 10));
     }
 
     public static DatabaseConnection getInstance() {
@@ -49,6 +108,210 @@ class DatabaseConnection {
     public Connection getConnection() {
         return connection;
     }
+
+    // A separate connection for long-running work that must not share the UI's connection
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    public ReadReplicaRouter getReadRouter() {
+        return readRouter;
+    }
+}
+
+// Read/write splitting: read-only queries are load-balanced over healthy replicas,
+// everything else goes to the primary. After a write, reads stay on the primary
+// for a short window so a clerk always sees the result of their own borrow or return.
+// That only holds while replicas trail the primary by less than the window, so the
+// health check also takes replicas that fall further behind out of rotation.
+class ReadReplicaRouter {
+    interface ReadOperation<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    // How far a replica trails the primary, in milliseconds (Long.MAX_VALUE if unknown)
+    interface LagProbe {
+        long lagMillis(Connection replica) throws SQLException;
+    }
+
+    // MySQL 8.0.22+ reports lag in whole seconds, so a replica reporting less than the
+    // window is behind by less than it. A server that is not a replica (no status row)
+    // or whose replication stopped (NULL lag) may never catch up.
+    static final LagProbe MYSQL_LAG = connection -> {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return Long.MAX_VALUE;
+            }
+            long seconds = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? Long.MAX_VALUE : TimeUnit.SECONDS.toMillis(seconds);
+        }
+    };
+
+    private static class Replica {
+        private final String url;
+        private volatile Connection connection;
+        private volatile boolean healthy;
+        private boolean checked;
+
+        Replica(String url) {
+            this.url = url;
+        }
+    }
+
+    private final Connection primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String user;
+    private final String password;
+    private final LagProbe lagProbe;
+    private final long stickyMillis;
+    private final long stickyNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long primaryReadsUntil;
+    private ScheduledExecutorService healthChecker;
+
+    public ReadReplicaRouter(Connection primary, List<String> replicaUrls, String user, String password,
+                             long stickyMillis) {
+        this(primary, replicaUrls, user, password, stickyMillis, MYSQL_LAG);
+    }
+
+    public ReadReplicaRouter(Connection primary, List<String> replicaUrls, String user, String password,
+                             long stickyMillis, LagProbe lagProbe) {
+        this.primary = primary;
+        this.user = user;
+        this.password = password;
+        this.lagProbe = lagProbe;
+        this.stickyMillis = stickyMillis;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+        this.primaryReadsUntil = System.nanoTime();
+        for (String url : replicaUrls) {
+            replicas.add(new Replica(url));
+        }
+    }
+
+    public Connection getPrimary() {
+        return primary;
+    }
+
+    // Called after every write so the following reads observe it
+    public void recordWrite() {
+        primaryReadsUntil = System.nanoTime() + stickyNanos;
+    }
+
+    public Connection forRead() {
+        if (System.nanoTime() - primaryReadsUntil < 0) {
+            return primary;
+        }
+        int size = replicas.size();
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            Connection connection = replica.connection;
+            if (replica.healthy && connection != null) {
+                return connection;
+            }
+        }
+        return primary;
+    }
+
+    // Runs a read on a replica, falling back to the primary if the replica fails
+    public <T> T read(ReadOperation<T> operation) throws SQLException {
+        Connection connection = forRead();
+        try {
+            return operation.execute(connection);
+        } catch (SQLException e) {
+            if (connection == primary) {
+                throw e;
+            }
+            markUnhealthy(connection);
+            Logger.getInstance().log("Replica read failed, retrying on primary: " + e.getMessage());
+            return operation.execute(primary);
+        }
+    }
+
+    public synchronized void startHealthChecks(long intervalSeconds) {
+        if (healthChecker != null || replicas.isEmpty()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first check also runs here, so an unreachable replica cannot delay start-up;
+        // until it completes, reads stay on the primary
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+        for (Replica replica : replicas) {
+            replica.healthy = false;
+            closeQuietly(replica.connection);
+            replica.connection = null;
+        }
+    }
+
+    // Validates every replica, reconnects the ones that dropped and benches the ones
+    // that lag the primary by the sticky window or more
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try {
+                Connection connection = replica.connection;
+                if (connection == null || !connection.isValid(2)) {
+                    replica.healthy = false;
+                    replica.connection = null;
+                    closeQuietly(connection);
+                    connection = DriverManager.getConnection(replica.url, user, password);
+                    connection.setReadOnly(true);
+                    replica.connection = connection;
+                }
+                long lag = lagProbe.lagMillis(connection);
+                if (lag >= stickyMillis) {
+                    if (wasHealthy || !replica.checked) {
+                        Logger.getInstance().log("Replica lagging: " + replica.url + " ("
+                            + (lag == Long.MAX_VALUE ? "not replicating" : lag + " ms behind") + ")");
+                    }
+                    replica.healthy = false;
+                    replica.checked = true;
+                    continue;
+                }
+                if (!wasHealthy) {
+                    Logger.getInstance().log("Replica available: " + replica.url);
+                }
+                replica.healthy = true;
+            } catch (SQLException e) {
+                if (wasHealthy || !replica.checked) {
+                    Logger.getInstance().log("Replica unavailable: " + replica.url + " (" + e.getMessage() + ")");
+                }
+                replica.healthy = false;
+            }
+            replica.checked = true;
+        }
+    }
+
+    private void markUnhealthy(Connection connection) {
+        for (Replica replica : replicas) {
+            if (replica.connection == connection) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // the connection is being replaced anyway
+        }
+    }
 }
 
 // Singleton for Logger with Thread Safety
@@ -73,11 +336,19 @@ class Logger {
     }
 }
 
-// Prototype Pattern
-abstract class Book implements IBook, Cloneable {
-    protected String title;
-    protected String author;
-    protected String category;
+// Prototype Pattern (immutable value objects, copied with with-style updates)
+// Books never change after construction, so caches, indexes and worker threads
+// can share the same instance without defensive copies.
+abstract class Book implements IBook {
+    private final String title;
+    private final String author;
+    private final String category;
+
+    protected Book(String category, String title, String author) {
+        this.category = category;
+        this.title = title;
+        this.author = author;
+    }
 
     @Override
     public String getTitle() { return title; }
@@ -87,38 +358,88 @@ abstract class Book implements IBook, Cloneable {
     
     @Override
     public String getCategory() { return category; }
-    
+
+    public Book withTitle(String title) {
+        return with(title, this.author);
+    }
+
+    public Book withAuthor(String author) {
+        return with(this.title, author);
+    }
+
+    // Returns this instance when nothing changes; otherwise a copy that shares the unchanged fields
+    public Book with(String title, String author) {
+        if (Objects.equals(this.title, title) && Objects.equals(this.author, author)) {
+            return this;
+        }
+        return copy(title, author);
+    }
+
+    protected abstract Book copy(String title, String author);
+
     @Override
-    public void setTitle(String title) { this.title = title; }
-    
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Book)) return false;
+        Book other = (Book) o;
+        return category.equals(other.category)
+            && Objects.equals(title, other.title)
+            && Objects.equals(author, other.author);
+    }
+
     @Override
-    public void setAuthor(String author) { this.author = author; }
+    public int hashCode() {
+        return Objects.hash(category, title, author);
+    }
 
     @Override
-    public Book clone() {
-        try {
-            return (Book) super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e);
-        }
+    public String toString() {
+        return "Book[title=" + title + ", author=" + author + ", category=" + category + "]";
     }
 }
 
 class SoftwareEngineeringBook extends Book {
     public SoftwareEngineeringBook() {
-        this.category = "Software Engineering";
+        this(null, null);
+    }
+
+    public SoftwareEngineeringBook(String title, String author) {
+        super("Software Engineering", title, author);
+    }
+
+    @Override
+    protected Book copy(String title, String author) {
+        return new SoftwareEngineeringBook(title, author);
     }
 }
 
 class ManagementBook extends Book {
     public ManagementBook() {
-        this.category = "Management";
+        this(null, null);
+    }
+
+    public ManagementBook(String title, String author) {
+        super("Management", title, author);
+    }
+
+    @Override
+    protected Book copy(String title, String author) {
+        return new ManagementBook(title, author);
     }
 }
 
 class ArtificialIntelligenceBook extends Book {
     public ArtificialIntelligenceBook() {
-        this.category = "Artificial Intelligence";
+        this(null, null);
+    }
+
+    public ArtificialIntelligenceBook(String title, String author) {
+        super("Artificial Intelligence", title, author);
+    }
+
+    @Override
+    protected Book copy(String title, String author) {
+        return new ArtificialIntelligenceBook(title, author);
     }
 }
 
@@ -196,12 +517,6 @@ class ExternalBookAdapter implements IBook {
     
     @Override
     public String getCategory() { return externalBook.getExternalCategory(); }
-    
-    @Override
-    public void setTitle(String title) { throw new UnsupportedOperationException(); }
-    
-    @Override
-    public void setAuthor(String author) { throw new UnsupportedOperationException(); }
 }
 
 // Abstract class for LibraryUser
@@ -249,29 +564,87 @@ interface BookBuilder {
 }
 
 class ConcreteBookBuilder implements BookBuilder {
-    private Book book;
+    // Books are immutable, so one empty prototype per category serves every build
+    private static final ConcurrentMap<String, Book> PROTOTYPES = new ConcurrentHashMap<>();
+
+    private final Book prototype;
+    private String title;
+    private String author;
 
     public ConcreteBookBuilder(String category) {
-        BookFactory factory = BookFactoryProducer.getFactory(category);
-        this.book = factory.createBook();
+        this.prototype = PROTOTYPES.computeIfAbsent(category,
+            c -> BookFactoryProducer.getFactory(c).createBook());
     }
 
     @Override
     public BookBuilder setTitle(String title) {
-        book.setTitle(title);
+        this.title = title;
         return this;
     }
 
     @Override
     public BookBuilder setAuthor(String author) {
-        book.setAuthor(author);
+        // Books by the same author share one String instance instead of one copy per row.
+        // The JVM string table is collected, so authors that are no longer referenced
+        // do not stay on the heap. Categories are already shared as the compile-time
+        // constants of each Book subclass.
+        this.author = author != null ? author.intern() : null;
         return this;
     }
 
     @Override
     public Book build() {
-        return book;
+        return prototype.with(title, author);
+    }
+}
+
+// Criteria for server-side filtering and sorting of the catalog
+class BookQuery {
+    enum SortColumn {
+        TITLE("title"), AUTHOR("author"), CATEGORY("category"), STATUS("is_borrowed");
+
+        private final String column;
+
+        SortColumn(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() { return column; }
     }
+
+    public static final BookQuery ALL = new BookQuery(null, null, SortColumn.TITLE, true);
+
+    private final String category;
+    private final Boolean borrowed;
+    private final SortColumn sortColumn;
+    private final boolean ascending;
+
+    // A null category or borrowed flag matches every book
+    public BookQuery(String category, Boolean borrowed, SortColumn sortColumn, boolean ascending) {
+        this.category = category;
+        this.borrowed = borrowed;
+        this.sortColumn = sortColumn;
+        this.ascending = ascending;
+    }
+
+    public String getCategory() { return category; }
+    public Boolean getBorrowed() { return borrowed; }
+    public SortColumn getSortColumn() { return sortColumn; }
+    public boolean isAscending() { return ascending; }
+}
+
+// A book together with its current loan state, as shown in listings
+class CatalogEntry {
+    private final Book book;
+    private final boolean borrowed;
+
+    public CatalogEntry(Book book, boolean borrowed) {
+        this.book = book;
+        this.borrowed = borrowed;
+    }
+
+    public Book getBook() { return book; }
+    public boolean isBorrowed() { return borrowed; }
 }
 
 // Proxy Pattern
@@ -282,13 +655,23 @@ interface BookService {
     boolean isBookAvailable(String title) throws SQLException;
     List<Book> getAvailableBooks() throws SQLException;
     List<Book> getBorrowedBooks() throws SQLException;
+    boolean borrowBook(String title, String userName) throws SQLException;
+    boolean returnBook(String title, String userName) throws SQLException;
+    int countBooks(BookQuery query) throws SQLException;
+    List<CatalogEntry> getBooksPage(BookQuery query, int offset, int limit) throws SQLException;
 }
 
 class RealBookService implements BookService {
-    private Connection connection;
+    private final ReadReplicaRouter router;
+    private final Connection connection;
 
     public RealBookService() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getReadRouter());
+    }
+
+    public RealBookService(ReadReplicaRouter router) {
+        this.router = router;
+        this.connection = router.getPrimary();
     }
 
     @Override
@@ -300,6 +683,7 @@ class RealBookService implements BookService {
         stmt.setString(2, book.getAuthor());
         stmt.setString(3, book.getCategory());
         stmt.executeUpdate();
+        router.recordWrite();
     }
 
     @Override
@@ -309,25 +693,15 @@ class RealBookService implements BookService {
         );
         stmt.setString(1, title);
         stmt.executeUpdate();
+        router.recordWrite();
     }
 
     @Override
     public List<Book> getAllBooks() throws SQLException {
-        List<Book> books = new ArrayList<>();
-        Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery("SELECT * FROM books");
-        
-        while (rs.next()) {
-            Book book = BookFactoryProducer
-                .getFactory(rs.getString("category"))
-                .createBook();
-            book.setTitle(rs.getString("title"));
-            book.setAuthor(rs.getString("author"));
-            books.add(book);
-        }
-        return books;
+        return router.read(conn -> queryBooks(conn, "SELECT * FROM books"));
     }
 
+    // Always asked right before a borrow, so it must not see a lagging replica
     @Override
     public boolean isBookAvailable(String title) throws SQLException {
         PreparedStatement stmt = connection.prepareStatement(
@@ -340,43 +714,174 @@ class RealBookService implements BookService {
 
     @Override
     public List<Book> getAvailableBooks() throws SQLException {
-        List<Book> books = new ArrayList<>();
-        Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery(
+        return router.read(conn -> queryBooks(conn,
             "SELECT * FROM books WHERE is_borrowed = false"
-        );
-        
-        while (rs.next()) {
-            Book book = BookFactoryProducer
-                .getFactory(rs.getString("category"))
-                .createBook();
-            book.setTitle(rs.getString("title"));
-            book.setAuthor(rs.getString("author"));
-            books.add(book);
-        }
-        return books;
+        ));
     }
 
     @Override
     public List<Book> getBorrowedBooks() throws SQLException {
-        List<Book> books = new ArrayList<>();
-        Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery(
+        return router.read(conn -> queryBooks(conn,
             "SELECT b.* FROM books b " +
             "JOIN borrowed_books bb ON b.title = bb.book_title " +
             "WHERE b.is_borrowed = true"
+        ));
+    }
+
+    // The loan, the book status and the append-only history row are written together
+    @Override
+    public boolean borrowBook(String title, String userName) throws SQLException {
+        // التحقق من وجود الكتاب وعدم استعارته
+        if (!isBookAvailable(title)) {
+            return false;
+        }
+        boolean previousAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO borrowed_books (book_title, user_name, borrow_date) VALUES (?, ?, NOW())"
+            );
+            stmt.setString(1, title);
+            stmt.setString(2, userName);
+            stmt.executeUpdate();
+
+            // تحديث حالة الكتاب
+            PreparedStatement updateStmt = connection.prepareStatement(
+                "UPDATE books SET is_borrowed = true WHERE title = ?"
+            );
+            updateStmt.setString(1, title);
+            updateStmt.executeUpdate();
+
+            // سجل الاستعارات لا يُحذف عند الإرجاع، ويُستخدم في التوصيات
+            PreparedStatement historyStmt = connection.prepareStatement(
+                "INSERT INTO loan_history (book_title, user_name, borrow_date) VALUES (?, ?, NOW())"
+            );
+            historyStmt.setString(1, title);
+            historyStmt.setString(2, userName);
+            historyStmt.executeUpdate();
+
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(previousAutoCommit);
+        }
+        router.recordWrite();
+        return true;
+    }
+
+    @Override
+    public boolean returnBook(String title, String userName) throws SQLException {
+        // التحقق من أن الكتاب مستعار فعلاً من قبل هذا المستخدم
+        PreparedStatement checkStmt = connection.prepareStatement(
+            "SELECT COUNT(*) FROM borrowed_books WHERE book_title = ? AND user_name = ?"
+        );
+        checkStmt.setString(1, title);
+        checkStmt.setString(2, userName);
+        ResultSet rs = checkStmt.executeQuery();
+        if (!rs.next() || rs.getInt(1) == 0) {
+            return false;
+        }
+
+        // حذف سجل الاستعارة
+        PreparedStatement deleteStmt = connection.prepareStatement(
+            "DELETE FROM borrowed_books WHERE book_title = ? AND user_name = ?"
+        );
+        deleteStmt.setString(1, title);
+        deleteStmt.setString(2, userName);
+        deleteStmt.executeUpdate();
+
+        // تحديث حالة الكتاب إلى متاح
+        PreparedStatement updateStmt = connection.prepareStatement(
+            "UPDATE books SET is_borrowed = false WHERE title = ?"
         );
-        
-        while (rs.next()) {
-            Book book = BookFactoryProducer
-                .getFactory(rs.getString("category"))
-                .createBook();
-            book.setTitle(rs.getString("title"));
-            book.setAuthor(rs.getString("author"));
-            books.add(book);
+        updateStmt.setString(1, title);
+        updateStmt.executeUpdate();
+        router.recordWrite();
+        return true;
+    }
+
+    private static List<Book> queryBooks(Connection conn, String sql) throws SQLException {
+        List<Book> books = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Book book = new ConcreteBookBuilder(rs.getString("category"))
+                    .setTitle(rs.getString("title"))
+                    .setAuthor(rs.getString("author"))
+                    .build();
+                books.add(book);
+            }
         }
         return books;
     }
+
+    @Override
+    public int countBooks(BookQuery query) throws SQLException {
+        return router.read(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT COUNT(*) FROM books" + whereClause(query))) {
+                bindFilters(stmt, query);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<CatalogEntry> getBooksPage(BookQuery query, int offset, int limit) throws SQLException {
+        // title breaks ties so that pages stay stable while scrolling. It follows the sort
+        // direction because an index can only be read forwards or backwards as a whole.
+        String direction = query.isAscending() ? " ASC" : " DESC";
+        String orderBy = " ORDER BY " + query.getSortColumn().getColumn() + direction;
+        if (query.getSortColumn() != BookQuery.SortColumn.TITLE) {
+            orderBy += ", title" + direction;
+        }
+        String sql = "SELECT title, author, category, is_borrowed FROM books" + whereClause(query) + orderBy + " LIMIT ? OFFSET ?";
+        return router.read(conn -> {
+            List<CatalogEntry> entries = new ArrayList<>(limit);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = bindFilters(stmt, query);
+                stmt.setInt(index++, limit);
+                stmt.setInt(index, offset);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Book book = new ConcreteBookBuilder(rs.getString("category"))
+                            .setTitle(rs.getString("title"))
+                            .setAuthor(rs.getString("author"))
+                            .build();
+                        entries.add(new CatalogEntry(book, rs.getBoolean("is_borrowed")));
+                    }
+                }
+            }
+            return entries;
+        });
+    }
+
+    private static String whereClause(BookQuery query) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getCategory() != null) {
+            conditions.add("category = ?");
+        }
+        if (query.getBorrowed() != null) {
+            conditions.add("is_borrowed = ?");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    // Returns the next free parameter index
+    private static int bindFilters(PreparedStatement stmt, BookQuery query) throws SQLException {
+        int index = 1;
+        if (query.getCategory() != null) {
+            stmt.setString(index++, query.getCategory());
+        }
+        if (query.getBorrowed() != null) {
+            stmt.setBoolean(index++, query.getBorrowed());
+        }
+        return index;
+    }
 }
 
 class BookServiceProxy implements BookService {
@@ -384,7 +889,11 @@ class BookServiceProxy implements BookService {
     private Logger logger;
 
     public BookServiceProxy() {
-        this.realService = new RealBookService();
+        this(new RealBookService());
+    }
+
+    public BookServiceProxy(RealBookService realService) {
+        this.realService = realService;
         this.logger = Logger.getInstance();
     }
 
@@ -433,6 +942,35 @@ class BookServiceProxy implements BookService {
         logger.log("Retrieved " + books.size() + " borrowed books");
         return books;
     }
+
+    @Override
+    public boolean borrowBook(String title, String userName) throws SQLException {
+        logger.log("Borrowing book: " + title + " for " + userName);
+        boolean borrowed = realService.borrowBook(title, userName);
+        logger.log("Book " + title + (borrowed ? " borrowed" : " could not be borrowed"));
+        return borrowed;
+    }
+
+    @Override
+    public boolean returnBook(String title, String userName) throws SQLException {
+        logger.log("Returning book: " + title + " from " + userName);
+        boolean returned = realService.returnBook(title, userName);
+        logger.log("Book " + title + (returned ? " returned" : " has no matching loan"));
+        return returned;
+    }
+
+    @Override
+    public int countBooks(BookQuery query) throws SQLException {
+        int count = realService.countBooks(query);
+        logger.log("Counted " + count + " matching books");
+        return count;
+    }
+
+    @Override
+    public List<CatalogEntry> getBooksPage(BookQuery query, int offset, int limit) throws SQLException {
+        logger.log("Fetching books " + offset + " to " + (offset + limit));
+        return realService.getBooksPage(query, offset, limit);
+    }
 }
 
 // Command Pattern for Book Operations
@@ -442,34 +980,27 @@ interface BookCommand {
 
 class BorrowBookCommand implements BookCommand {
     private final BookService bookService;
+    private final RecommendationService recommendationService;
     private final String bookTitle;
     private final String userName;
 
-    public BorrowBookCommand(BookService bookService, String bookTitle, String userName) {
+    public BorrowBookCommand(BookService bookService, RecommendationService recommendationService,
+                             String bookTitle, String userName) {
         this.bookService = bookService;
+        this.recommendationService = recommendationService;
         this.bookTitle = bookTitle;
         this.userName = userName;
     }
 
     @Override
     public boolean execute() throws SQLException {
-        // التحقق من وجود الكتاب وعدم استعارته
-        if (bookService.isBookAvailable(bookTitle)) {
-            Connection conn = DatabaseConnection.getInstance().getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
-                "INSERT INTO borrowed_books (book_title, user_name, borrow_date) VALUES (?, ?, NOW())"
-            );
-            stmt.setString(1, bookTitle);
-            stmt.setString(2, userName);
-            stmt.executeUpdate();
-            
-            // تحديث حالة الكتاب
-            PreparedStatement updateStmt = conn.prepareStatement(
-                "UPDATE books SET is_borrowed = true WHERE title = ?"
-            );
-            updateStmt.setString(1, bookTitle);
-            updateStmt.executeUpdate();
-            
+        if (bookService.borrowBook(bookTitle, userName)) {
+            // الاستعارة تمت بالفعل، فلا يجوز أن يُفشلها خطأ في التوصيات
+            try {
+                recommendationService.recordBorrow(bookTitle, userName);
+            } catch (RuntimeException e) {
+                Logger.getInstance().log("Failed to update recommendations: " + e.getMessage());
+            }
             return true;
         }
         return false;
@@ -489,71 +1020,1675 @@ class ReturnBookCommand implements BookCommand {
 
     @Override
     public boolean execute() throws SQLException {
-        Connection conn = DatabaseConnection.getInstance().getConnection();
-        
-        // التحقق من أن الكتاب مستعار فعلاً من قبل هذا المستخدم
-        PreparedStatement checkStmt = conn.prepareStatement(
-            "SELECT COUNT(*) FROM borrowed_books WHERE book_title = ? AND user_name = ?"
-        );
-        checkStmt.setString(1, bookTitle);
-        checkStmt.setString(2, userName);
-        ResultSet rs = checkStmt.executeQuery();
-        
-        if (rs.next() && rs.getInt(1) > 0) {
-            // حذف سجل الاستعارة
-            PreparedStatement deleteStmt = conn.prepareStatement(
-                "DELETE FROM borrowed_books WHERE book_title = ? AND user_name = ?"
-            );
-            deleteStmt.setString(1, bookTitle);
-            deleteStmt.setString(2, userName);
-            deleteStmt.executeUpdate();
-            
-            // تحديث حالة الكتاب إلى متاح
-            PreparedStatement updateStmt = conn.prepareStatement(
-                "UPDATE books SET is_borrowed = false WHERE title = ?"
-            );
-            updateStmt.setString(1, bookTitle);
-            updateStmt.executeUpdate();
-            
-            return true;
-        }
-        return false;
+        return bookService.returnBook(bookTitle, userName);
     }
 }
 
-// GUI Application
-public class JavaApplication3 {
-    public static void main(String[] args) {
-        DatabaseConnection db = DatabaseConnection.getInstance();
-        Logger logger = Logger.getInstance();
+// Open-addressing int -> int map with linear probing. Keys must be non-negative.
+// Used for sparse co-occurrence rows and per-patron item sets without boxing.
+class IntIntHashMap {
+    private static final int EMPTY = -1;
 
-        JFrame frame = new JFrame("Library Management System");
-        frame.setSize(600, 500);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setLayout(new BorderLayout());
+    private int[] keys;
+    private int[] values;
+    private int size;
 
-        JPanel headerPanel = new JPanel();
-        headerPanel.setBackground(new Color(70, 130, 180));
-        JLabel headerLabel = new JLabel("Library Management System");
-        headerLabel.setFont(new Font("Arial", Font.BOLD, 20));
-        headerLabel.setForeground(Color.WHITE);
-        headerPanel.add(headerLabel);
-        frame.add(headerPanel, BorderLayout.NORTH);
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
 
-        JPanel buttonPanel = new JPanel(new GridLayout(5, 1, 10, 10));
-        buttonPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+    public int get(int key) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
 
-        JButton addBookButton = new JButton("Add Book");
-        JButton addUserButton = new JButton("Add User");
-        JButton viewDatabaseButton = new JButton("View Database");
-        JButton borrowBookButton = new JButton("Borrow Book");
-        JButton returnBookButton = new JButton("Return Book");
+    public boolean containsKey(int key) {
+        return keys[find(key)] == key;
+    }
+
+    // Adds delta to the value of key (starting from 0) and returns the new value
+    public int addTo(int key, int delta) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize();
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot iteration: slots whose key is negative are unused
+    public int capacity() {
+        return keys.length;
+    }
+
+    public int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
+
+// Item-item co-occurrence model: for every title, how many distinct patrons also
+// borrowed each other title. Not thread-safe; RecommendationService guards it.
+class CoOccurrenceModel {
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final Map<String, Integer> titleIds = new HashMap<>();
+    private final List<String> titles = new ArrayList<>();
+    private final Map<String, Integer> userIds = new HashMap<>();
+    private final List<IntIntHashMap> userItems = new ArrayList<>();
+    private final List<IntIntHashMap> rows = new ArrayList<>();
+
+    public void recordBorrow(String userName, String bookTitle) {
+        int item = titleId(bookTitle);
+        IntIntHashMap items = userItems.get(userId(userName));
+        // Only the first loan of a title by a patron adds co-occurrences
+        if (items.addTo(item, 1) > 1) {
+            return;
+        }
+        IntIntHashMap row = rows.get(item);
+        for (int slot = 0; slot < items.capacity(); slot++) {
+            int other = items.keyAt(slot);
+            if (other >= 0 && other != item) {
+                row.addTo(other, 1);
+                rows.get(other).addTo(item, 1);
+            }
+        }
+    }
+
+    // Titles most often borrowed by the same patrons, best first
+    public List<String> recommend(String bookTitle, int k) {
+        Integer item = titleIds.get(bookTitle);
+        if (item == null || k <= 0) {
+            return new ArrayList<>();
+        }
+        IntIntHashMap row = rows.get(item);
+
+        // Bounded min-heap of (count, item) kept in two parallel arrays
+        int[] heapCounts = new int[k];
+        int[] heapItems = new int[k];
+        int heapSize = 0;
+        for (int slot = 0; slot < row.capacity(); slot++) {
+            int other = row.keyAt(slot);
+            if (other < 0) {
+                continue;
+            }
+            int count = row.valueAt(slot);
+            if (heapSize < k) {
+                heapCounts[heapSize] = count;
+                heapItems[heapSize] = other;
+                siftUp(heapCounts, heapItems, heapSize++);
+            } else if (isBetter(count, other, heapCounts[0], heapItems[0])) {
+                heapCounts[0] = count;
+                heapItems[0] = other;
+                siftDown(heapCounts, heapItems, heapSize);
+            }
+        }
+
+        String[] result = new String[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = titles.get(heapItems[0]);
+            heapCounts[0] = heapCounts[i];
+            heapItems[0] = heapItems[i];
+            siftDown(heapCounts, heapItems, i);
+        }
+        return Arrays.asList(result);
+    }
+
+    // Bulk loading: addLoan for every loan, then buildRows once. A loan only costs its
+    // two ids while it is added, and the rows are built in one parallel pass at the end.
+    public void addLoan(String userName, String bookTitle) {
+        int item = titleId(bookTitle);
+        userItems.get(userId(userName)).addTo(item, 1);
+    }
+
+    // Recomputes every row from the patrons' item sets. Each fork-join task fills a
+    // disjoint range of rows, so no merging or locking is needed.
+    public void buildRows(ForkJoinPool pool) {
+        int itemCount = titles.size();
+        int[] userCounts = new int[itemCount];
+        for (IntIntHashMap items : userItems) {
+            for (int slot = 0; slot < items.capacity(); slot++) {
+                if (items.keyAt(slot) >= 0) {
+                    userCounts[items.keyAt(slot)]++;
+                }
+            }
+        }
+        int[][] itemUsers = new int[itemCount][];
+        for (int item = 0; item < itemCount; item++) {
+            itemUsers[item] = new int[userCounts[item]];
+            userCounts[item] = 0;
+        }
+        for (int user = 0; user < userItems.size(); user++) {
+            IntIntHashMap items = userItems.get(user);
+            for (int slot = 0; slot < items.capacity(); slot++) {
+                int item = items.keyAt(slot);
+                if (item >= 0) {
+                    itemUsers[item][userCounts[item]++] = user;
+                }
+            }
+        }
+
+        IntIntHashMap[] built = new IntIntHashMap[itemCount];
+        pool.invoke(new RowBuilder(userItems, itemUsers, built, 0, itemCount));
+        rows.clear();
+        rows.addAll(Arrays.asList(built));
+    }
+
+    private static class RowBuilder extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<IntIntHashMap> userItems;
+        private final int[][] itemUsers;
+        private final IntIntHashMap[] rows;
+        private final int from;
+        private final int to;
+
+        RowBuilder(List<IntIntHashMap> userItems, int[][] itemUsers, IntIntHashMap[] rows, int from, int to) {
+            this.userItems = userItems;
+            this.itemUsers = itemUsers;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowBuilder(userItems, itemUsers, rows, from, mid),
+                          new RowBuilder(userItems, itemUsers, rows, mid, to));
+                return;
+            }
+            for (int item = from; item < to; item++) {
+                IntIntHashMap row = new IntIntHashMap(4);
+                for (int user : itemUsers[item]) {
+                    IntIntHashMap items = userItems.get(user);
+                    for (int slot = 0; slot < items.capacity(); slot++) {
+                        int other = items.keyAt(slot);
+                        if (other >= 0 && other != item) {
+                            row.addTo(other, 1);
+                        }
+                    }
+                }
+                rows[item] = row;
+            }
+        }
+    }
+
+    private int titleId(String title) {
+        Integer id = titleIds.get(title);
+        if (id == null) {
+            id = titles.size();
+            titleIds.put(title, id);
+            titles.add(title);
+            rows.add(new IntIntHashMap(4));
+        }
+        return id;
+    }
+
+    private int userId(String userName) {
+        Integer id = userIds.get(userName);
+        if (id == null) {
+            id = userItems.size();
+            userIds.put(userName, id);
+            userItems.add(new IntIntHashMap(4));
+        }
+        return id;
+    }
+
+    // Higher count wins; ties go to the lower item id so results are stable
+    private static boolean isBetter(int count, int item, int otherCount, int otherItem) {
+        return count != otherCount ? count > otherCount : item < otherItem;
+    }
+
+    private static void siftUp(int[] counts, int[] items, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(counts[parent], items[parent], counts[index], items[index])) {
+                break;
+            }
+            swap(counts, items, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] counts, int[] items, int size) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && isBetter(counts[left], items[left], counts[right], items[right])) {
+                worst = right;
+            }
+            if (!isBetter(counts[index], items[index], counts[worst], items[worst])) {
+                break;
+            }
+            swap(counts, items, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] counts, int[] items, int i, int j) {
+        int count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        int item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+    }
+}
+
+// Singleton Pattern
+// "Patrons who borrowed this also borrowed..." backed by the append-only loan_history
+// table, which RealBookService writes in the same transaction as each borrow. The model
+// is updated after every borrow and rebuilt from history when the application starts.
+class RecommendationService {
+    private static volatile RecommendationService instance;
+
+    private final Logger logger;
+    private CoOccurrenceModel model = new CoOccurrenceModel();
+    // Borrows recorded while a rebuild is running, replayed onto the rebuilt model
+    private List<String[]> pendingLoans;
+    private boolean rebuildRequested;
+
+    // The application uses getInstance(); tests create their own, empty instances
+    RecommendationService() {
+        this.logger = Logger.getInstance();
+    }
+
+    public static RecommendationService getInstance() {
+        if (instance == null) {
+            synchronized (RecommendationService.class) {
+                if (instance == null) {
+                    instance = new RecommendationService();
+                    ForkJoinPool.commonPool().execute(() -> {
+                        try {
+                            instance.rebuild();
+                        } catch (SQLException e) {
+                            Logger.getInstance().log("Failed to build recommendations: " + e.getMessage());
+                        }
+                    });
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Folds a committed borrow into the model
+    public synchronized void recordBorrow(String bookTitle, String userName) {
+        model.recordBorrow(userName, bookTitle);
+        if (pendingLoans != null) {
+            pendingLoans.add(new String[] {userName, bookTitle});
+        }
+    }
+
+    public synchronized List<String> recommend(String bookTitle, int k) {
+        return model.recommend(bookTitle, k);
+    }
+
+    // Streams the full history from the primary into a new model, mapping names to ids
+    // as rows arrive, and builds its rows in parallel; the
+    // current model keeps serving requests until the new one is swapped in. A rebuild
+    // requested while one is running is run again afterwards, so it sees the latest history.
+    public void rebuild() throws SQLException {
+        synchronized (this) {
+            if (pendingLoans != null) {
+                rebuildRequested = true;
+                return;
+            }
+            pendingLoans = new ArrayList<>();
+        }
+        boolean again;
+        do {
+            CoOccurrenceModel rebuilt = new CoOccurrenceModel();
+            try {
+                long loans = 0;
+                try (Connection connection = DatabaseConnection.getInstance().openConnection();
+                     Statement stmt = CatalogSnapshotService.createStreamingStatement(connection);
+                     ResultSet rs = stmt.executeQuery("SELECT user_name, book_title FROM loan_history")) {
+                    while (rs.next()) {
+                        rebuilt.addLoan(rs.getString("user_name"), rs.getString("book_title"));
+                        loans++;
+                    }
+                }
+                rebuilt.buildRows(ForkJoinPool.commonPool());
+                logger.log("Recommendation model rebuilt from " + loans + " loans");
+            } catch (SQLException | RuntimeException e) {
+                synchronized (this) {
+                    pendingLoans = null;
+                    rebuildRequested = false;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                // Replaying a loan already present in history does not change co-occurrence counts
+                for (String[] loan : pendingLoans) {
+                    rebuilt.recordBorrow(loan[0], loan[1]);
+                }
+                model = rebuilt;
+                again = rebuildRequested;
+                rebuildRequested = false;
+                pendingLoans = again ? new ArrayList<>() : null;
+            }
+        } while (again);
+    }
+}
+
+// Strategy Pattern for catalog export/import formats
+// A sink receives the catalog as a stream of records (books, users, loans, then loan history),
+// so exporters and importers never hold the whole catalog in memory.
+// finish() is called once after the last record; closing a sink without finishing it
+// leaves the output incomplete (an exporter writes no trailer, a loader rolls back).
+interface CatalogRecordSink extends Closeable {
+    void writeBook(Book book, boolean borrowed) throws IOException;
+    void writeUser(String name, String role) throws IOException;
+    void writeLoan(String bookTitle, String userName, Timestamp borrowDate) throws IOException;
+    void writeLoanHistory(String bookTitle, String userName, Timestamp borrowDate) throws IOException;
+    void finish() throws IOException;
+}
+
+// Binary snapshot layout (version 2 added loan history records; version 1 files still load):
+//   header : int magic "LIBS", short version
+//   chunk  : int rawLength, int compressedLength, int crc32(raw), deflated bytes
+//   end    : int 0, int 0, int 0, long recordCount
+// Records never span chunks. Strings are int length (-1 for null) + UTF-8 bytes.
+class BinarySnapshotWriter implements CatalogRecordSink {
+    static final int MAGIC = 0x4C494253;
+    static final short VERSION = 2;
+    static final int CHUNK_SIZE = 256 * 1024;
+    // Upper bound for a single chunk, so readers can reject corrupt headers before allocating
+    static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    static final byte BOOK_RECORD = 1;
+    static final byte USER_RECORD = 2;
+    static final byte LOAN_RECORD = 3;
+    static final byte HISTORY_RECORD = 4;
+
+    private final WritableByteChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer chunkHeader = ByteBuffer.allocate(12);
+    private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    private byte[] compressed = new byte[CHUNK_SIZE + 1024];
+    private long recordCount;
+
+    public BinarySnapshotWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(6);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        writeFully(header);
+    }
+
+    @Override
+    public void writeBook(Book book, boolean borrowed) throws IOException {
+        byte[] title = encode(book.getTitle());
+        byte[] author = encode(book.getAuthor());
+        byte[] category = encode(book.getCategory());
+        beginRecord(BOOK_RECORD, sizeOf(title) + sizeOf(author) + sizeOf(category) + 1);
+        putString(title);
+        putString(author);
+        putString(category);
+        chunk.put((byte) (borrowed ? 1 : 0));
+    }
+
+    @Override
+    public void writeUser(String name, String role) throws IOException {
+        byte[] nameBytes = encode(name);
+        byte[] roleBytes = encode(role);
+        beginRecord(USER_RECORD, sizeOf(nameBytes) + sizeOf(roleBytes));
+        putString(nameBytes);
+        putString(roleBytes);
+    }
+
+    @Override
+    public void writeLoan(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        writeLoanRecord(LOAN_RECORD, bookTitle, userName, borrowDate);
+    }
+
+    @Override
+    public void writeLoanHistory(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        writeLoanRecord(HISTORY_RECORD, bookTitle, userName, borrowDate);
+    }
+
+    private void writeLoanRecord(byte type, String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        byte[] title = encode(bookTitle);
+        byte[] user = encode(userName);
+        beginRecord(type, sizeOf(title) + sizeOf(user) + 8);
+        putString(title);
+        putString(user);
+        chunk.putLong(borrowDate != null ? borrowDate.getTime() : Long.MIN_VALUE);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushChunk();
+        ByteBuffer end = ByteBuffer.allocate(20);
+        end.putInt(0).putInt(0).putInt(0).putLong(recordCount).flip();
+        writeFully(end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            deflater.end();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void beginRecord(byte type, int size) throws IOException {
+        if (size + 1 > MAX_CHUNK_SIZE) {
+            throw new IOException("Snapshot record too large: " + size + " bytes");
+        }
+        if (chunk.remaining() < size + 1) {
+            flushChunk();
+            if (chunk.capacity() < size + 1) {
+                chunk = ByteBuffer.allocate(size + 1);
+            }
+        }
+        chunk.put(type);
+        recordCount++;
+    }
+
+    private void flushChunk() throws IOException {
+        int rawLength = chunk.position();
+        if (rawLength == 0) {
+            return;
+        }
+        byte[] raw = chunk.array();
+        crc.reset();
+        crc.update(raw, 0, rawLength);
+
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        chunkHeader.clear();
+        chunkHeader.putInt(rawLength).putInt(compressedLength).putInt((int) crc.getValue()).flip();
+        writeFully(chunkHeader);
+        writeFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+        chunk.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            chunk.putInt(-1);
+        } else {
+            chunk.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return 4 + (bytes != null ? bytes.length : 0);
+    }
+}
+
+class BinarySnapshotReader {
+    private final ReadableByteChannel channel;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer chunkHeader = ByteBuffer.allocate(12);
+    private byte[] raw = new byte[BinarySnapshotWriter.CHUNK_SIZE];
+    private byte[] compressed = new byte[BinarySnapshotWriter.CHUNK_SIZE];
+
+    public BinarySnapshotReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    // Replays every record into the sink and returns the number of records read
+    public long readInto(CatalogRecordSink sink) throws IOException {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(6);
+            readFully(header);
+            if (header.getInt() != BinarySnapshotWriter.MAGIC) {
+                throw new IOException("Not a library snapshot file");
+            }
+            short version = header.getShort();
+            if (version < 1 || version > BinarySnapshotWriter.VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+
+            long records = 0;
+            while (true) {
+                chunkHeader.clear();
+                readFully(chunkHeader);
+                int rawLength = chunkHeader.getInt();
+                int compressedLength = chunkHeader.getInt();
+                int checksum = chunkHeader.getInt();
+                if (rawLength == 0) {
+                    if (compressedLength != 0 || checksum != 0) {
+                        throw new IOException("Corrupt snapshot end marker");
+                    }
+                    break;
+                }
+                ByteBuffer chunk = inflateChunk(rawLength, compressedLength, checksum);
+                try {
+                    while (chunk.hasRemaining()) {
+                        readRecord(chunk, sink);
+                        records++;
+                    }
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Corrupt snapshot record", e);
+                }
+            }
+
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            readFully(trailer);
+            long expected = trailer.getLong();
+            if (expected != records) {
+                throw new IOException("Snapshot truncated: expected " + expected + " records, read " + records);
+            }
+            return records;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private ByteBuffer inflateChunk(int rawLength, int compressedLength, int checksum) throws IOException {
+        // Deflate never expands input by more than a few bytes per 16 KB block
+        int maxCompressedLength = rawLength + (rawLength >>> 12) + (rawLength >>> 14) + 64;
+        if (rawLength < 0 || rawLength > BinarySnapshotWriter.MAX_CHUNK_SIZE
+                || compressedLength <= 0 || compressedLength > maxCompressedLength) {
+            throw new IOException("Corrupt snapshot chunk header");
+        }
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        readFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Corrupt snapshot chunk: expected " + rawLength + " bytes, got " + inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt snapshot chunk", e);
+        }
+
+        crc.reset();
+        crc.update(raw, 0, rawLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Snapshot chunk checksum mismatch");
+        }
+        return ByteBuffer.wrap(raw, 0, rawLength);
+    }
+
+    private void readRecord(ByteBuffer chunk, CatalogRecordSink sink) throws IOException {
+        byte type = chunk.get();
+        switch (type) {
+            case BinarySnapshotWriter.BOOK_RECORD: {
+                String title = getString(chunk);
+                String author = getString(chunk);
+                String category = getString(chunk);
+                boolean borrowed = chunk.get() != 0;
+                Book book = new ConcreteBookBuilder(category)
+                    .setTitle(title)
+                    .setAuthor(author)
+                    .build();
+                sink.writeBook(book, borrowed);
+                break;
+            }
+            case BinarySnapshotWriter.USER_RECORD:
+                sink.writeUser(getString(chunk), getString(chunk));
+                break;
+            case BinarySnapshotWriter.LOAN_RECORD:
+            case BinarySnapshotWriter.HISTORY_RECORD: {
+                String title = getString(chunk);
+                String user = getString(chunk);
+                long millis = chunk.getLong();
+                Timestamp borrowDate = millis != Long.MIN_VALUE ? new Timestamp(millis) : null;
+                if (type == BinarySnapshotWriter.LOAN_RECORD) {
+                    sink.writeLoan(title, user, borrowDate);
+                } else {
+                    sink.writeLoanHistory(title, user, borrowDate);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown snapshot record type: " + type);
+        }
+    }
+
+    private static String getString(ByteBuffer chunk) throws IOException {
+        int length = chunk.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > chunk.remaining()) {
+            throw new IOException("Corrupt snapshot string length: " + length);
+        }
+        String value = new String(chunk.array(), chunk.arrayOffset() + chunk.position(), length, StandardCharsets.UTF_8);
+        chunk.position(chunk.position() + length);
+        return value;
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of snapshot");
+            }
+        }
+        buffer.flip();
+    }
+}
+
+class CsvCatalogExporter implements CatalogRecordSink {
+    private final java.io.Writer out;
+
+    public CsvCatalogExporter(WritableByteChannel channel) throws IOException {
+        this.out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 64 * 1024));
+        out.write("type,title,author,category,is_borrowed,user_name,role,borrow_date\r\n");
+    }
+
+    @Override
+    public void writeBook(Book book, boolean borrowed) throws IOException {
+        writeRow("book", book.getTitle(), book.getAuthor(), book.getCategory(),
+            String.valueOf(borrowed), null, null, null);
+    }
+
+    @Override
+    public void writeUser(String name, String role) throws IOException {
+        writeRow("user", null, null, null, null, name, role, null);
+    }
+
+    @Override
+    public void writeLoan(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        writeRow("loan", bookTitle, null, null, null, userName, null,
+            borrowDate != null ? borrowDate.toString() : null);
+    }
+
+    @Override
+    public void writeLoanHistory(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        writeRow("history", bookTitle, null, null, null, userName, null,
+            borrowDate != null ? borrowDate.toString() : null);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeRow(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(fields[i]);
+        }
+        out.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
+
+class JsonCatalogExporter implements CatalogRecordSink {
+    private final java.io.Writer out;
+    private String currentSection;
+    private boolean firstInSection;
+
+    public JsonCatalogExporter(WritableByteChannel channel) throws IOException {
+        this.out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 64 * 1024));
+        out.write("{\"version\":" + BinarySnapshotWriter.VERSION);
+    }
+
+    @Override
+    public void writeBook(Book book, boolean borrowed) throws IOException {
+        beginElement("books");
+        out.write("{\"title\":");
+        writeString(book.getTitle());
+        out.write(",\"author\":");
+        writeString(book.getAuthor());
+        out.write(",\"category\":");
+        writeString(book.getCategory());
+        out.write(",\"is_borrowed\":");
+        out.write(String.valueOf(borrowed));
+        out.write('}');
+    }
+
+    @Override
+    public void writeUser(String name, String role) throws IOException {
+        beginElement("users");
+        out.write("{\"name\":");
+        writeString(name);
+        out.write(",\"role\":");
+        writeString(role);
+        out.write('}');
+    }
+
+    @Override
+    public void writeLoan(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        writeLoanElement("loans", bookTitle, userName, borrowDate);
+    }
+
+    @Override
+    public void writeLoanHistory(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        writeLoanElement("loan_history", bookTitle, userName, borrowDate);
+    }
+
+    private void writeLoanElement(String section, String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        beginElement(section);
+        out.write("{\"book_title\":");
+        writeString(bookTitle);
+        out.write(",\"user_name\":");
+        writeString(userName);
+        out.write(",\"borrow_date\":");
+        writeString(borrowDate != null ? borrowDate.toString() : null);
+        out.write('}');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (currentSection != null) {
+            out.write(']');
+        }
+        out.write("}\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // Records arrive grouped by type, so each section is opened once and streamed
+    private void beginElement(String section) throws IOException {
+        if (!section.equals(currentSection)) {
+            if (currentSection != null) {
+                out.write(']');
+            }
+            out.write(",\n\"" + section + "\":[");
+            currentSection = section;
+            firstInSection = true;
+        }
+        if (!firstInSection) {
+            out.write(',');
+        }
+        out.write('\n');
+        firstInSection = false;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
+
+// Loads a snapshot into the database with batched inserts inside one transaction.
+// Nothing is visible to other connections until commit(); close() rolls back otherwise.
+// When replacing, loan history is only replaced if the snapshot carries any, so loading
+// a version 1 snapshot (which has none) keeps the history the recommendations rely on.
+class DatabaseSnapshotLoader implements CatalogRecordSink {
+    private static final int BATCH_SIZE = 5000;
+
+    private final Connection connection;
+    private final boolean previousAutoCommit;
+    private final PreparedStatement bookStmt;
+    private final PreparedStatement userStmt;
+    private final PreparedStatement loanStmt;
+    private final PreparedStatement historyStmt;
+    private int pendingBooks;
+    private int pendingUsers;
+    private int pendingLoans;
+    private int pendingHistory;
+    private boolean replaceHistory;
+    private boolean committed;
+
+    public DatabaseSnapshotLoader(Connection connection, boolean replaceExisting) throws SQLException {
+        this.connection = connection;
+        this.previousAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        if (replaceExisting) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DELETE FROM borrowed_books");
+                stmt.executeUpdate("DELETE FROM books");
+                stmt.executeUpdate("DELETE FROM users");
+            }
+        }
+        this.replaceHistory = replaceExisting;
+        this.bookStmt = connection.prepareStatement(
+            "INSERT INTO books (title, author, category, is_borrowed) VALUES (?, ?, ?, ?)"
+        );
+        this.userStmt = connection.prepareStatement(
+            "INSERT INTO users (name, role) VALUES (?, ?)"
+        );
+        this.loanStmt = connection.prepareStatement(
+            "INSERT INTO borrowed_books (book_title, user_name, borrow_date) VALUES (?, ?, ?)"
+        );
+        this.historyStmt = connection.prepareStatement(
+            "INSERT INTO loan_history (book_title, user_name, borrow_date) VALUES (?, ?, ?)"
+        );
+    }
+
+    @Override
+    public void writeBook(Book book, boolean borrowed) throws IOException {
+        try {
+            bookStmt.setString(1, book.getTitle());
+            bookStmt.setString(2, book.getAuthor());
+            bookStmt.setString(3, book.getCategory());
+            bookStmt.setBoolean(4, borrowed);
+            bookStmt.addBatch();
+            if (++pendingBooks == BATCH_SIZE) {
+                bookStmt.executeBatch();
+                pendingBooks = 0;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load book: " + book.getTitle(), e);
+        }
+    }
+
+    @Override
+    public void writeUser(String name, String role) throws IOException {
+        try {
+            userStmt.setString(1, name);
+            userStmt.setString(2, role);
+            userStmt.addBatch();
+            if (++pendingUsers == BATCH_SIZE) {
+                userStmt.executeBatch();
+                pendingUsers = 0;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load user: " + name, e);
+        }
+    }
+
+    @Override
+    public void writeLoan(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        try {
+            loanStmt.setString(1, bookTitle);
+            loanStmt.setString(2, userName);
+            loanStmt.setTimestamp(3, borrowDate);
+            loanStmt.addBatch();
+            if (++pendingLoans == BATCH_SIZE) {
+                loanStmt.executeBatch();
+                pendingLoans = 0;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load loan: " + bookTitle, e);
+        }
+    }
+
+    @Override
+    public void writeLoanHistory(String bookTitle, String userName, Timestamp borrowDate) throws IOException {
+        try {
+            if (replaceHistory) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM loan_history");
+                }
+                replaceHistory = false;
+            }
+            historyStmt.setString(1, bookTitle);
+            historyStmt.setString(2, userName);
+            historyStmt.setTimestamp(3, borrowDate);
+            historyStmt.addBatch();
+            if (++pendingHistory == BATCH_SIZE) {
+                historyStmt.executeBatch();
+                pendingHistory = 0;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load loan history: " + bookTitle, e);
+        }
+    }
+
+    // Flushes the remaining batches and commits the whole load
+    @Override
+    public void finish() throws IOException {
+        try {
+            if (pendingBooks > 0) bookStmt.executeBatch();
+            if (pendingUsers > 0) userStmt.executeBatch();
+            if (pendingLoans > 0) loanStmt.executeBatch();
+            if (pendingHistory > 0) historyStmt.executeBatch();
+            pendingBooks = pendingUsers = pendingLoans = pendingHistory = 0;
+            connection.commit();
+            committed = true;
+        } catch (SQLException e) {
+            throw new IOException("Failed to commit snapshot load", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!committed) {
+                connection.rollback();
+            }
+            bookStmt.close();
+            userStmt.close();
+            loanStmt.close();
+            historyStmt.close();
+            connection.setAutoCommit(previousAutoCommit);
+        } catch (SQLException e) {
+            throw new IOException("Failed to finish snapshot load", e);
+        }
+    }
+}
+
+// Facade for backups: streams the catalog out of the database into any format,
+// and restores binary snapshots back into it. Each export or import runs on its own
+// connection so that it can run in the background while the UI keeps working.
+class CatalogSnapshotService {
+    interface SinkFactory {
+        CatalogRecordSink open(WritableByteChannel channel) throws IOException;
+    }
+
+    private final DatabaseConnection database;
+    private final Logger logger;
+
+    public CatalogSnapshotService() {
+        this.database = DatabaseConnection.getInstance();
+        this.logger = Logger.getInstance();
+    }
+
+    public void exportSnapshot(Path file) throws IOException, SQLException {
+        exportToFile(file, BinarySnapshotWriter::new);
+        logger.log("Catalog snapshot written to " + file);
+    }
+
+    public void exportCsv(Path file) throws IOException, SQLException {
+        exportToFile(file, CsvCatalogExporter::new);
+        logger.log("Catalog CSV written to " + file);
+    }
+
+    public void exportJson(Path file) throws IOException, SQLException {
+        exportToFile(file, JsonCatalogExporter::new);
+        logger.log("Catalog JSON written to " + file);
+    }
+
+    // Replaces the current catalog, users and loans with the snapshot contents, and the
+    // loan history too if the snapshot has one (version 1 snapshots do not)
+    public long importSnapshot(Path file) throws IOException, SQLException {
+        long records;
+        try (Connection connection = database.openConnection();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             DatabaseSnapshotLoader loader = new DatabaseSnapshotLoader(connection, true)) {
+            records = new BinarySnapshotReader(channel).readInto(loader);
+            loader.finish();
+        }
+        database.getReadRouter().recordWrite();
+        logger.log("Catalog snapshot loaded from " + file + " (" + records + " records)");
+        try {
+            RecommendationService.getInstance().rebuild();
+        } catch (SQLException e) {
+            logger.log("Failed to rebuild recommendations after import: " + e.getMessage());
+        }
+        return records;
+    }
+
+    // Replays a snapshot into an arbitrary sink, e.g. to warm an in-memory cache
+    public long readSnapshot(Path file, CatalogRecordSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinarySnapshotReader(channel).readInto(sink);
+        }
+    }
+
+    // Streams a consistent view of books, users and loans into the sink; the caller finishes it
+    public void exportTo(CatalogRecordSink sink) throws IOException, SQLException {
+        try (Connection connection = database.openConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+            }
+            try {
+                exportRecords(connection, sink);
+            } catch (IOException | SQLException | RuntimeException e) {
+                // Ending the read-only snapshot must not hide why the export failed
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+            connection.commit();
+        }
+    }
+
+    // Writes to a temporary file next to the target and moves it into place only after
+    // the export finished, so a failed export never replaces the previous backup. The
+    // temporary file gets the default permissions (Files.createTempFile would make it
+    // owner-only, and the move would carry that over to the backup).
+    private void exportToFile(Path file, SinkFactory factory) throws IOException, SQLException {
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 CatalogRecordSink sink = factory.open(channel)) {
+                exportTo(sink);
+                sink.finish();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void exportRecords(Connection connection, CatalogRecordSink sink) throws IOException, SQLException {
+        try (Statement stmt = createStreamingStatement(connection);
+             ResultSet rs = stmt.executeQuery("SELECT title, author, category, is_borrowed FROM books")) {
+            while (rs.next()) {
+                Book book = new ConcreteBookBuilder(rs.getString("category"))
+                    .setTitle(rs.getString("title"))
+                    .setAuthor(rs.getString("author"))
+                    .build();
+                sink.writeBook(book, rs.getBoolean("is_borrowed"));
+            }
+        }
+        try (Statement stmt = createStreamingStatement(connection);
+             ResultSet rs = stmt.executeQuery("SELECT name, role FROM users")) {
+            while (rs.next()) {
+                sink.writeUser(rs.getString("name"), rs.getString("role"));
+            }
+        }
+        try (Statement stmt = createStreamingStatement(connection);
+             ResultSet rs = stmt.executeQuery("SELECT book_title, user_name, borrow_date FROM borrowed_books")) {
+            while (rs.next()) {
+                sink.writeLoan(rs.getString("book_title"), rs.getString("user_name"), rs.getTimestamp("borrow_date"));
+            }
+        }
+        try (Statement stmt = createStreamingStatement(connection);
+             ResultSet rs = stmt.executeQuery("SELECT book_title, user_name, borrow_date FROM loan_history ORDER BY id")) {
+            while (rs.next()) {
+                sink.writeLoanHistory(rs.getString("book_title"), rs.getString("user_name"), rs.getTimestamp("borrow_date"));
+            }
+        }
+    }
+
+    // Row-by-row streaming in MySQL Connector/J instead of buffering the whole result
+    static Statement createStreamingStatement(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+}
+
+// Template Method Pattern for lazily loaded tables
+// Rows are fetched one page at a time on a background thread when the table first
+// asks for them; only the most recently used pages are kept, so memory follows
+// what is on screen rather than the size of the catalog.
+abstract class PagedTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 8;
+    // Only the most recently requested pages are still worth loading; dragging the
+    // scrollbar requests every page on the way, and the rest are dropped unqueried
+    private static final int MAX_WANTED_PAGES = 4;
+    private static final String LOADING = "Loading...";
+    private static final String LOAD_FAILED = "(failed to load)";
+
+    private final String[] columnNames;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "table-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> pendingPages = new HashSet<>();
+    // Pages whose query failed are not retried until the next refresh
+    private final Set<Integer> failedPages = new HashSet<>();
+    private final Deque<Integer> requestOrder = new ArrayDeque<>();
+    // Written on the EDT, read by the loader thread just before it runs a query
+    private final Set<Integer> wantedPages = ConcurrentHashMap.newKeySet();
+    private int rowCount;
+    private String loadError;
+    // Bumped on every refresh so that results of an outdated query are dropped
+    private int generation;
+
+    protected PagedTableModel(String... columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    protected abstract int loadRowCount() throws SQLException;
+
+    protected abstract List<T> loadPage(int offset, int limit) throws SQLException;
+
+    protected abstract Object columnValue(T row, int column);
+
+    // Must be called on the EDT
+    public void refresh() {
+        generation++;
+        pages.clear();
+        pendingPages.clear();
+        failedPages.clear();
+        requestOrder.clear();
+        wantedPages.clear();
+        rowCount = 0;
+        loadError = null;
+        fireTableDataChanged();
+
+        int requested = generation;
+        loader.submit(() -> {
+            try {
+                int count = loadRowCount();
+                SwingUtilities.invokeLater(() -> {
+                    if (requested == generation) {
+                        rowCount = count;
+                        fireTableDataChanged();
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                reportFailure(requested, -1, "Failed to count table rows", e);
+            }
+        });
+    }
+
+    public void dispose() {
+        loader.shutdownNow();
+    }
+
+    // Why the last count or page query failed since the last refresh, or null; read on the EDT
+    public String getLoadError() {
+        return loadError;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            if (failedPages.contains(page)) {
+                return LOAD_FAILED;
+            }
+            requestPage(page);
+            return LOADING;
+        }
+        // Prefetch the neighbouring page so scrolling rarely shows placeholders
+        requestPage(rowIndex % PAGE_SIZE < PAGE_SIZE / 2 ? page - 1 : page + 1);
+        int index = rowIndex % PAGE_SIZE;
+        return index < rows.size() ? columnValue(rows.get(index), columnIndex) : null;
+    }
+
+    private void requestPage(int page) {
+        if (page < 0 || page * PAGE_SIZE >= rowCount || pages.containsKey(page)
+                || failedPages.contains(page) || !pendingPages.add(page)) {
+            return;
+        }
+        wantedPages.add(page);
+        requestOrder.addLast(page);
+        while (requestOrder.size() > MAX_WANTED_PAGES) {
+            int stale = requestOrder.removeFirst();
+            wantedPages.remove(stale);
+            pendingPages.remove(stale);
+        }
+
+        int requested = generation;
+        loader.submit(() -> {
+            if (!wantedPages.contains(page)) {
+                return;
+            }
+            try {
+                List<T> rows = loadPage(page * PAGE_SIZE, PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> {
+                    if (requested != generation) {
+                        return;
+                    }
+                    pendingPages.remove(page);
+                    requestOrder.remove(page);
+                    wantedPages.remove(page);
+                    pages.put(page, rows);
+                    int first = page * PAGE_SIZE;
+                    int last = Math.min(first + PAGE_SIZE, rowCount) - 1;
+                    if (first <= last) {
+                        fireTableRowsUpdated(first, last);
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                // A row the model cannot map (e.g. an unknown category) fails the same way
+                // as the query itself, instead of leaving the page loading forever
+                reportFailure(requested, page, "Failed to load rows " + page * PAGE_SIZE, e);
+            }
+        });
+    }
+
+    // Logs the failure and, unless a refresh made it outdated, shows it in the table
+    // (page < 0 means the row count query failed)
+    private void reportFailure(int requested, int page, String what, Exception e) {
+        String message = what + ": " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        Logger.getInstance().log(message);
+        SwingUtilities.invokeLater(() -> {
+            if (requested != generation) {
+                return;
+            }
+            loadError = message;
+            if (page < 0) {
+                fireTableDataChanged();
+                return;
+            }
+            pendingPages.remove(page);
+            requestOrder.remove(page);
+            wantedPages.remove(page);
+            failedPages.add(page);
+            int first = page * PAGE_SIZE;
+            int last = Math.min(first + PAGE_SIZE, rowCount) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        });
+    }
+}
+
+class BookTableModel extends PagedTableModel<CatalogEntry> {
+    private static final long serialVersionUID = 1L;
+
+    private final BookService bookService;
+    private volatile BookQuery query = BookQuery.ALL;
+
+    // Columns are laid out in the same order as BookQuery.SortColumn
+    public BookTableModel(BookService bookService) {
+        super("Title", "Author", "Category", "Status");
+        this.bookService = bookService;
+    }
+
+    public BookQuery getQuery() {
+        return query;
+    }
+
+    public void setFilter(String category, Boolean borrowed) {
+        query = new BookQuery(category, borrowed, query.getSortColumn(), query.isAscending());
+        refresh();
+    }
+
+    // Clicking the current sort column again flips the direction
+    public void sortBy(int column) {
+        BookQuery.SortColumn sortColumn = BookQuery.SortColumn.values()[column];
+        boolean ascending = sortColumn != query.getSortColumn() || !query.isAscending();
+        query = new BookQuery(query.getCategory(), query.getBorrowed(), sortColumn, ascending);
+        refresh();
+    }
+
+    @Override
+    protected int loadRowCount() throws SQLException {
+        return bookService.countBooks(query);
+    }
+
+    @Override
+    protected List<CatalogEntry> loadPage(int offset, int limit) throws SQLException {
+        return bookService.getBooksPage(query, offset, limit);
+    }
+
+    @Override
+    protected Object columnValue(CatalogEntry entry, int column) {
+        switch (column) {
+            case 0: return entry.getBook().getTitle();
+            case 1: return entry.getBook().getAuthor();
+            case 2: return entry.getBook().getCategory();
+            default: return entry.isBorrowed() ? "Borrowed" : "Available";
+        }
+    }
+}
+
+class UserTableModel extends PagedTableModel<String[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final Connection connection;
+
+    public UserTableModel() {
+        super("Name", "Role");
+        this.connection = DatabaseConnection.getInstance().getConnection();
+    }
+
+    @Override
+    protected int loadRowCount() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    protected List<String[]> loadPage(int offset, int limit) throws SQLException {
+        List<String[]> users = new ArrayList<>(limit);
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT name, role FROM users ORDER BY name LIMIT ? OFFSET ?")) {
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(new String[] {rs.getString("name"), rs.getString("role")});
+                }
+            }
+        }
+        return users;
+    }
+
+    @Override
+    protected Object columnValue(String[] user, int column) {
+        return user[column];
+    }
+}
+
+// Browsing window that replaces the old text dump of the whole database
+class CatalogBrowser extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private static final String ALL_CATEGORIES = "All Categories";
+    private static final String[] AVAILABILITY = {"All", "Available", "Borrowed"};
+
+    private final BookTableModel bookModel;
+    private final UserTableModel userModel;
+    private final JLabel statusLabel = new JLabel(" ");
+
+    public CatalogBrowser(BookService bookService) {
+        super("Library Catalog");
+        this.bookModel = new BookTableModel(bookService);
+        this.userModel = new UserTableModel();
+        setSize(700, 500);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        JComboBox<String> categoryBox = new JComboBox<>(
+            new String[] {ALL_CATEGORIES, "Software Engineering", "Management", "Artificial Intelligence"});
+        JComboBox<String> availabilityBox = new JComboBox<>(AVAILABILITY);
+        ActionListener applyFilter = e -> {
+            String category = (String) categoryBox.getSelectedItem();
+            String availability = (String) availabilityBox.getSelectedItem();
+            bookModel.setFilter(
+                ALL_CATEGORIES.equals(category) ? null : category,
+                "All".equals(availability) ? null : "Borrowed".equals(availability));
+        };
+        categoryBox.addActionListener(applyFilter);
+        availabilityBox.addActionListener(applyFilter);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Category:"));
+        filterPanel.add(categoryBox);
+        filterPanel.add(new JLabel("Availability:"));
+        filterPanel.add(availabilityBox);
+
+        JTable bookTable = new JTable(bookModel);
+        bookTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = bookTable.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    bookModel.sortBy(bookTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
+        bookModel.addTableModelListener(e -> updateStatus());
+
+        JPanel booksPanel = new JPanel(new BorderLayout());
+        booksPanel.add(filterPanel, BorderLayout.NORTH);
+        booksPanel.add(new JScrollPane(bookTable), BorderLayout.CENTER);
+        booksPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Books", booksPanel);
+        tabs.addTab("Users", new JScrollPane(new JTable(userModel)));
+        add(tabs, BorderLayout.CENTER);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                bookModel.dispose();
+                userModel.dispose();
+            }
+        });
+
+        bookModel.refresh();
+        userModel.refresh();
+    }
+
+    private void updateStatus() {
+        String error = bookModel.getLoadError();
+        if (error != null) {
+            statusLabel.setText(error);
+            return;
+        }
+        BookQuery query = bookModel.getQuery();
+        statusLabel.setText(bookModel.getRowCount() + " books, sorted by "
+            + bookModel.getColumnName(query.getSortColumn().ordinal())
+            + (query.isAscending() ? " (ascending)" : " (descending)"));
+    }
+}
+
+// Creates the tables and indexes this application adds on top of the base schema.
+// The tables are created at start-up; the indexes are a one-time migration that runs
+// in the background, because indexing a large books table takes minutes and InnoDB
+// builds them online, so the catalog stays usable (only slower) until they exist.
+// Index failures are logged so the application keeps working without them.
+class LibrarySchema {
+    // Every page query is an equality match on its filters followed by ORDER BY the sort
+    // column and title, so each index is the filter columns, then the sort column, then
+    // title. A sort on a column the filter already fixes uses the filter's own index.
+    private static final String[][] BOOK_INDEXES = {
+        {"idx_books_title", "title"},
+        {"idx_books_author", "author, title"},
+        {"idx_books_category", "category, title"},
+        {"idx_books_status", "is_borrowed, title"},
+        {"idx_books_category_author", "category, author, title"},
+        {"idx_books_category_status", "category, is_borrowed, title"},
+        {"idx_books_status_author", "is_borrowed, author, title"},
+        {"idx_books_status_category", "is_borrowed, category, title"},
+        {"idx_books_category_status_author", "category, is_borrowed, author, title"}
+    };
+
+    public static void ensure(Connection connection) {
+        // Every borrow writes to loan_history, so the application cannot run without it
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS loan_history (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "book_title VARCHAR(255) NOT NULL, " +
+                "user_name VARCHAR(255) NOT NULL, " +
+                "borrow_date DATETIME NOT NULL)"
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create loan history table: " + e.getMessage(), e);
+        }
+    }
+
+    // Builds missing indexes on a connection of its own, off the start-up path
+    public static void ensureIndexesInBackground(DatabaseConnection database) {
+        Thread builder = new Thread(() -> {
+            try (Connection connection = database.openConnection()) {
+                for (String[] index : BOOK_INDEXES) {
+                    try {
+                        ensureIndex(connection, "books", index[0], index[1]);
+                    } catch (SQLException e) {
+                        Logger.getInstance().log("Failed to create index " + index[0] + ": " + e.getMessage());
+                    }
+                }
+            } catch (SQLException e) {
+                Logger.getInstance().log("Failed to open connection for index creation: " + e.getMessage());
+            }
+        }, "library-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS
+    private static void ensureIndex(Connection connection, String table, String name, String columns) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+        }
+        Logger.getInstance().log("Created index " + name);
+    }
+}
+
+// GUI Application
+public class JavaApplication3 {
+    public static void main(String[] args) {
+        DatabaseConnection db = DatabaseConnection.getInstance();
+        Logger logger = Logger.getInstance();
+        LibrarySchema.ensure(db.getConnection());
+        LibrarySchema.ensureIndexesInBackground(db);
+        // Starts rebuilding recommendations from loan history before the first borrow
+        RecommendationService recommendationService = RecommendationService.getInstance();
+
+        JFrame frame = new JFrame("Library Management System");
+        frame.setSize(600, 500);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setLayout(new BorderLayout());
+
+        JPanel headerPanel = new JPanel();
+        headerPanel.setBackground(new Color(70, 130, 180));
+        JLabel headerLabel = new JLabel("Library Management System");
+        headerLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        headerLabel.setForeground(Color.WHITE);
+        headerPanel.add(headerLabel);
+        frame.add(headerPanel, BorderLayout.NORTH);
+
+        JPanel buttonPanel = new JPanel(new GridLayout(7, 1, 10, 10));
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JButton addBookButton = new JButton("Add Book");
+        JButton addUserButton = new JButton("Add User");
+        JButton viewDatabaseButton = new JButton("View Database");
+        JButton borrowBookButton = new JButton("Borrow Book");
+        JButton returnBookButton = new JButton("Return Book");
+        JButton exportButton = new JButton("Export Catalog");
+        JButton importButton = new JButton("Import Snapshot");
 
         buttonPanel.add(addBookButton);
         buttonPanel.add(addUserButton);
         buttonPanel.add(viewDatabaseButton);
         buttonPanel.add(borrowBookButton);
         buttonPanel.add(returnBookButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(importButton);
         frame.add(buttonPanel, BorderLayout.CENTER);
 
         addBookButton.addActionListener(e -> {
@@ -577,9 +2712,6 @@ public class JavaApplication3 {
                     BookService bookService = new BookServiceProxy();
                     bookService.addBook(book);
 
-                    // استخدام Prototype Pattern
-                    Book backupBook = book.clone();
-                    
                     JOptionPane.showMessageDialog(frame, "Book added successfully!");
                 } catch (SQLException ex) {
                     JOptionPane.showMessageDialog(frame, "Failed to add book: " + ex.getMessage(),
@@ -612,32 +2744,7 @@ public class JavaApplication3 {
         });
 
         viewDatabaseButton.addActionListener(e -> {
-            try {
-                StringBuilder data = new StringBuilder("Books:\n");
-                Statement stmt = db.getConnection().createStatement();
-                ResultSet books = stmt.executeQuery("SELECT * FROM books");
-                while (books.next()) {
-                    data.append("Title: ").append(books.getString("title"))
-                        .append(", Author: ").append(books.getString("author"))
-                        .append(", Category: ").append(books.getString("category"))
-                        .append("\n");
-                }
-
-                data.append("\nUsers:\n");
-                ResultSet users = stmt.executeQuery("SELECT * FROM users");
-                while (users.next()) {
-                    data.append("Name: ").append(users.getString("name"))
-                        .append(", Role: ").append(users.getString("role"))
-                        .append("\n");
-                }
-
-                JTextArea textArea = new JTextArea(data.toString());
-                textArea.setEditable(false);
-                JScrollPane scrollPane = new JScrollPane(textArea);
-                JOptionPane.showMessageDialog(frame, scrollPane, "Database Contents", JOptionPane.INFORMATION_MESSAGE);
-            } catch (SQLException ex) {
-                JOptionPane.showMessageDialog(frame, "Failed to fetch database contents: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            new CatalogBrowser(new BookServiceProxy()).setVisible(true);
         });
 
         borrowBookButton.addActionListener(e -> {
@@ -682,12 +2789,17 @@ public class JavaApplication3 {
                     }
 
                     // تنفيذ أمر الاستعارة
-                    BookCommand borrowCommand = new BorrowBookCommand(bookService, selectedBook, userName);
+                    BookCommand borrowCommand = new BorrowBookCommand(bookService, recommendationService, selectedBook, userName);
                     if (borrowCommand.execute()) {
                         Logger.getInstance().log(
                             "تمت استعارة الكتاب: " + selectedBook + " بواسطة: " + userName
                         );
-                        JOptionPane.showMessageDialog(frame, "تمت عملية الاستعارة بنجاح!");
+                        List<String> recommendations = recommendationService.recommend(selectedBook, 5);
+                        String message = "تمت عملية الاستعارة بنجاح!";
+                        if (!recommendations.isEmpty()) {
+                            message += "\n\nالمستعيرون لهذا الكتاب استعاروا أيضاً:\n" + String.join("\n", recommendations);
+                        }
+                        JOptionPane.showMessageDialog(frame, message);
                     } else {
                         JOptionPane.showMessageDialog(frame,
                             "عذراً، الكتاب غير متاح للاستعارة",
@@ -766,6 +2878,89 @@ public class JavaApplication3 {
             }
         });
 
+        exportButton.addActionListener(e -> {
+            String[] formats = {"Binary Snapshot", "CSV", "JSON"};
+            JComboBox<String> formatBox = new JComboBox<>(formats);
+            int option = JOptionPane.showConfirmDialog(frame, new Object[] {"Format:", formatBox},
+                "Export Catalog", JOptionPane.OK_CANCEL_OPTION);
+            if (option != JOptionPane.OK_OPTION) {
+                return;
+            }
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            String format = (String) formatBox.getSelectedItem();
+            Path file = chooser.getSelectedFile().toPath();
+
+            // Export streams from the database, so keep it off the EDT
+            exportButton.setEnabled(false);
+            new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() throws Exception {
+                    CatalogSnapshotService snapshotService = new CatalogSnapshotService();
+                    switch (format) {
+                        case "CSV":
+                            snapshotService.exportCsv(file);
+                            break;
+                        case "JSON":
+                            snapshotService.exportJson(file);
+                            break;
+                        default:
+                            snapshotService.exportSnapshot(file);
+                    }
+                    return null;
+                }
+
+                @Override
+                protected void done() {
+                    exportButton.setEnabled(true);
+                    try {
+                        get();
+                        JOptionPane.showMessageDialog(frame, "Catalog exported successfully!");
+                    } catch (Exception ex) {
+                        Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+                        JOptionPane.showMessageDialog(frame, "Failed to export catalog: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+
+        importButton.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            int confirm = JOptionPane.showConfirmDialog(frame,
+                "Importing replaces all books, users and loans, and the loan history if the snapshot contains one. Continue?",
+                "Import Snapshot", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (confirm != JOptionPane.OK_OPTION) {
+                return;
+            }
+            Path file = chooser.getSelectedFile().toPath();
+
+            importButton.setEnabled(false);
+            new SwingWorker<Long, Void>() {
+                @Override
+                protected Long doInBackground() throws Exception {
+                    return new CatalogSnapshotService().importSnapshot(file);
+                }
+
+                @Override
+                protected void done() {
+                    importButton.setEnabled(true);
+                    try {
+                        JOptionPane.showMessageDialog(frame, "Snapshot imported: " + get() + " records");
+                    } catch (Exception ex) {
+                        Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+                        JOptionPane.showMessageDialog(frame, "Failed to import snapshot: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+
         frame.setVisible(true);
 }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package javaapplication3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Measures the heap held by a 1M-row catalog listing. Not a unit test; run it
+// with a fixed heap, e.g. java -Xms2g -Xmx2g javaapplication3.BookHeapFootprint
+//
+// Strings are allocated per row, as a JDBC driver returns them. The old model is
+// the mutable Book that existed before books became immutable: three fields per
+// row and no sharing. The add-book handler used to clone one book into a local
+// that was dropped on return, so it has no steady-state cost and is not modelled.
+public class BookHeapFootprint {
+    private static final int ROWS = 1_000_000;
+    private static final int AUTHORS = 1000;
+    private static final String[] CATEGORIES = {
+        "Software Engineering", "Management", "Artificial Intelligence"
+    };
+
+    static class MutableBook {
+        String title;
+        String author;
+        String category;
+    }
+
+    public static void main(String[] args) {
+        long before = usedHeap();
+        List<MutableBook> mutable = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            MutableBook book = new MutableBook();
+            book.category = new String(CATEGORIES[i % CATEGORIES.length]);
+            book.title = "Title " + i;
+            book.author = new String("Author " + (i % AUTHORS));
+            mutable.add(book);
+        }
+        long mutableBytes = usedHeap() - before;
+        System.out.println("mutable model:             " + mutableBytes / 1_000_000 + " MB (" + mutable.size() + " rows)");
+        mutable = null;
+
+        before = usedHeap();
+        List<Book> immutable = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            immutable.add(new ConcreteBookBuilder(new String(CATEGORIES[i % CATEGORIES.length]))
+                .setTitle("Title " + i)
+                .setAuthor(new String("Author " + (i % AUTHORS)))
+                .build());
+        }
+        long immutableBytes = usedHeap() - before;
+        System.out.println("immutable model, interned: " + immutableBytes / 1_000_000 + " MB (" + immutable.size() + " rows)");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,106 @@
+package javaapplication3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CoOccurrenceModelTest {
+
+    @Test
+    public void incrementalAndRebuiltModelsAgree() {
+        // More titles than the parallel threshold, so the rebuild forks
+        Random random = new Random(42);
+        List<String[]> loans = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            loans.add(new String[] {"user" + random.nextInt(200), "title" + random.nextInt(600)});
+        }
+
+        CoOccurrenceModel incremental = new CoOccurrenceModel();
+        CoOccurrenceModel rebuilt = new CoOccurrenceModel();
+        for (String[] loan : loans) {
+            incremental.recordBorrow(loan[0], loan[1]);
+            rebuilt.addLoan(loan[0], loan[1]);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            rebuilt.buildRows(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int title = 0; title < 600; title++) {
+            assertEquals(incremental.recommend("title" + title, 1000), rebuilt.recommend("title" + title, 1000));
+        }
+    }
+
+    @Test
+    public void recommendationsAreOrderedByCountThenFirstSeen() {
+        CoOccurrenceModel model = new CoOccurrenceModel();
+        borrow(model, "u1", "A", "B", "C", "D", "E");
+        borrow(model, "u2", "A", "B", "D");
+        borrow(model, "u3", "A", "B", "C");
+        // A repeated loan by the same patron adds nothing
+        borrow(model, "u1", "E", "E");
+
+        assertEquals(Arrays.asList("B", "C", "D", "E"), model.recommend("A", 10));
+        assertEquals(Arrays.asList("B", "C"), model.recommend("A", 2));
+        assertEquals(Collections.emptyList(), model.recommend("A", 0));
+        assertEquals(Collections.emptyList(), model.recommend("unknown", 5));
+    }
+
+    @Test
+    public void replayingAKnownLoanAfterRebuildChangesNothing() {
+        CoOccurrenceModel model = new CoOccurrenceModel();
+        model.addLoan("u1", "A");
+        model.addLoan("u1", "B");
+        model.addLoan("u2", "A");
+        model.addLoan("u2", "C");
+        model.buildRows(ForkJoinPool.commonPool());
+        List<String> before = model.recommend("A", 5);
+
+        model.recordBorrow("u1", "B");
+
+        assertEquals(before, model.recommend("A", 5));
+        assertEquals(Arrays.asList("B", "C"), before);
+    }
+
+    @Test
+    public void intIntHashMapGrowsAndKeepsEntries() {
+        IntIntHashMap map = new IntIntHashMap(1);
+        int initialCapacity = map.capacity();
+        for (int key = 0; key < 10000; key++) {
+            map.addTo(key * 7, key);
+        }
+        map.addTo(7, 5);
+
+        assertEquals(10000, map.size());
+        assertTrue(map.capacity() > initialCapacity);
+        assertEquals(0, map.capacity() & (map.capacity() - 1));
+        assertTrue(map.size() * 4 <= map.capacity() * 3);
+        for (int key = 2; key < 10000; key++) {
+            assertEquals(key, map.get(key * 7));
+        }
+        assertEquals(6, map.get(7));
+        assertFalse(map.containsKey(8));
+        assertEquals(0, map.get(8));
+
+        int occupied = 0;
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.keyAt(slot) >= 0) {
+                occupied++;
+            }
+        }
+        assertEquals(10000, occupied);
+    }
+
+    private static void borrow(CoOccurrenceModel model, String user, String... titles) {
+        for (String title : titles) {
+            model.recordBorrow(user, title);
+        }
+    }
+}
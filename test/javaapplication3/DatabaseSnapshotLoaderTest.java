@@ -0,0 +1,78 @@
+package javaapplication3;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DatabaseSnapshotLoaderTest {
+    private static final Timestamp BORROWED = Timestamp.valueOf("2024-01-01 10:00:00");
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:snapshot", "sa", "");
+        execute("CREATE TABLE books (title VARCHAR(255), author VARCHAR(255), " +
+            "category VARCHAR(255), is_borrowed BOOLEAN DEFAULT FALSE)");
+        execute("CREATE TABLE users (name VARCHAR(255), role VARCHAR(255))");
+        execute("CREATE TABLE borrowed_books (book_title VARCHAR(255), " +
+            "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+        execute("CREATE TABLE loan_history (book_title VARCHAR(255), " +
+            "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+        execute("INSERT INTO books (title, author, category) VALUES ('Old', 'Author', 'Management')");
+        execute("INSERT INTO loan_history VALUES ('Old', 'Sara', TIMESTAMP '2023-01-01 10:00:00')");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void snapshotWithoutHistoryKeepsExistingHistory() throws IOException, SQLException {
+        // What a version 1 snapshot replays: no loan history records
+        try (DatabaseSnapshotLoader loader = new DatabaseSnapshotLoader(connection, true)) {
+            loader.writeBook(new ManagementBook("New", "Author"), false);
+            loader.finish();
+        }
+
+        assertEquals(1, count("books WHERE title = 'New'"));
+        assertEquals(0, count("books WHERE title = 'Old'"));
+        assertEquals(1, count("loan_history WHERE book_title = 'Old'"));
+    }
+
+    @Test
+    public void snapshotWithHistoryReplacesHistory() throws IOException, SQLException {
+        try (DatabaseSnapshotLoader loader = new DatabaseSnapshotLoader(connection, true)) {
+            loader.writeBook(new ManagementBook("New", "Author"), false);
+            loader.writeLoanHistory("New", "Omar", BORROWED);
+            loader.writeLoanHistory("New", "Sara", BORROWED);
+            loader.finish();
+        }
+
+        assertEquals(0, count("loan_history WHERE book_title = 'Old'"));
+        assertEquals(2, count("loan_history WHERE book_title = 'New'"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private int count(String tableAndFilter) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tableAndFilter)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
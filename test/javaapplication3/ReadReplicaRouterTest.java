@@ -0,0 +1,202 @@
+package javaapplication3;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+// Routes RealBookService over in-memory H2 databases. The "replicas" are not
+// replicated, so the data a read returns shows which database served it.
+public class ReadReplicaRouterTest {
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+    // H2 has no replication status; tests that are not about lag treat replicas as current
+    private static final ReadReplicaRouter.LagProbe NO_LAG = connection -> 0;
+
+    private final List<Connection> databases = new ArrayList<>();
+    private ReadReplicaRouter router;
+
+    @After
+    public void tearDown() throws SQLException {
+        if (router != null) {
+            router.close();
+        }
+        // Closing the last connection drops each in-memory database
+        for (Connection connection : databases) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void readsAreServedByReplica() throws SQLException {
+        Connection primary = database("primary", "A");
+        database("replica", "A", "B");
+        RealBookService service = service(primary, 5000, "replica");
+
+        assertEquals(titles("A", "B"), titlesOf(service.getAllBooks()));
+    }
+
+    @Test
+    public void readsAreSpreadOverReplicas() throws SQLException {
+        Connection primary = database("primary", "A", "B");
+        database("replica1", "A");
+        database("replica2", "B");
+        RealBookService service = service(primary, 5000, "replica1", "replica2");
+
+        Set<String> seen = new HashSet<>();
+        seen.addAll(titlesOf(service.getAllBooks()));
+        seen.addAll(titlesOf(service.getAllBooks()));
+        assertEquals(titles("A", "B"), seen);
+    }
+
+    @Test
+    public void borrowKeepsReadsOnPrimary() throws SQLException {
+        Connection primary = database("primary", "A");
+        database("replica", "A");
+        RealBookService service = service(primary, 60000, "replica");
+
+        assertTrue(service.borrowBook("A", "Sara"));
+
+        // The replica still lists A as available; the clerk must see the borrow
+        assertTrue(service.getAvailableBooks().isEmpty());
+        assertEquals(titles("A"), titlesOf(service.getBorrowedBooks()));
+    }
+
+    @Test
+    public void returnKeepsReadsOnPrimary() throws Exception {
+        Connection primary = database("primary", "A");
+        Connection replica = database("replica", "A");
+        try (Statement stmt = replica.createStatement()) {
+            stmt.executeUpdate("UPDATE books SET is_borrowed = TRUE");
+        }
+        RealBookService service = service(primary, 200, "replica");
+        assertTrue(service.borrowBook("A", "Sara"));
+        Thread.sleep(300);
+        assertTrue(service.getAvailableBooks().isEmpty());
+
+        assertTrue(service.returnBook("A", "Sara"));
+
+        // The replica still lists A as borrowed
+        assertEquals(titles("A"), titlesOf(service.getAvailableBooks()));
+    }
+
+    @Test
+    public void readsReturnToReplicaAfterStickyWindow() throws Exception {
+        Connection primary = database("primary", "A");
+        database("replica", "A");
+        RealBookService service = service(primary, 50, "replica");
+
+        assertTrue(service.borrowBook("A", "Sara"));
+        Thread.sleep(100);
+
+        // Served by the (stale) replica again
+        assertEquals(titles("A"), titlesOf(service.getAvailableBooks()));
+    }
+
+    @Test
+    public void unreachableReplicaFallsBackToPrimary() throws SQLException {
+        Connection primary = database("primary", "A");
+        router = new ReadReplicaRouter(primary,
+            Collections.singletonList("jdbc:h2:mem:missing;IFEXISTS=TRUE"), USER, PASSWORD, 5000, NO_LAG);
+        router.checkHealth();
+
+        assertSame(primary, router.forRead());
+        assertEquals(titles("A"), titlesOf(new RealBookService(router).getAllBooks()));
+    }
+
+    @Test
+    public void failedReplicaReadIsRetriedOnPrimary() throws SQLException {
+        Connection primary = database("primary", "A");
+        // Reachable, but without the schema, so every query fails
+        databases.add(DriverManager.getConnection("jdbc:h2:mem:empty", USER, PASSWORD));
+        router = new ReadReplicaRouter(primary,
+            Collections.singletonList("jdbc:h2:mem:empty"), USER, PASSWORD, 5000, NO_LAG);
+        router.checkHealth();
+
+        assertEquals(titles("A"), titlesOf(new RealBookService(router).getAllBooks()));
+        assertSame(primary, router.forRead());
+    }
+
+    @Test
+    public void laggingReplicaIsTakenOutOfRotation() throws SQLException {
+        Connection primary = database("primary", "A");
+        database("replica", "A", "B");
+        AtomicLong lag = new AtomicLong(5000);
+        router = new ReadReplicaRouter(primary,
+            Collections.singletonList("jdbc:h2:mem:replica"), USER, PASSWORD, 5000, connection -> lag.get());
+        router.checkHealth();
+
+        assertSame(primary, router.forRead());
+        assertEquals(titles("A"), titlesOf(new RealBookService(router).getAllBooks()));
+
+        lag.set(4000);
+        router.checkHealth();
+        assertNotSame(primary, router.forRead());
+    }
+
+    @Test
+    public void replicaWithUnknownLagIsNotUsed() throws SQLException {
+        Connection primary = database("primary", "A");
+        database("replica", "A");
+        // What the MySQL probe reports when replication is stopped or not configured
+        router = new ReadReplicaRouter(primary,
+            Collections.singletonList("jdbc:h2:mem:replica"), USER, PASSWORD, 5000, connection -> Long.MAX_VALUE);
+        router.checkHealth();
+
+        assertSame(primary, router.forRead());
+    }
+
+    private RealBookService service(Connection primary, long stickyMillis, String... replicaNames) {
+        List<String> urls = new ArrayList<>();
+        for (String name : replicaNames) {
+            urls.add("jdbc:h2:mem:" + name);
+        }
+        router = new ReadReplicaRouter(primary, urls, USER, PASSWORD, stickyMillis, NO_LAG);
+        router.checkHealth();
+        return new RealBookService(router);
+    }
+
+    private Connection database(String name, String... titles) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name, USER, PASSWORD);
+        databases.add(connection);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE books (title VARCHAR(255), author VARCHAR(255), " +
+                "category VARCHAR(255), is_borrowed BOOLEAN DEFAULT FALSE)");
+            stmt.executeUpdate("CREATE TABLE borrowed_books (book_title VARCHAR(255), " +
+                "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+            stmt.executeUpdate("CREATE TABLE loan_history (book_title VARCHAR(255), " +
+                "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO books (title, author, category) VALUES (?, 'Author', 'Management')")) {
+            for (String title : titles) {
+                stmt.setString(1, title);
+                stmt.executeUpdate();
+            }
+        }
+        return connection;
+    }
+
+    private static Set<String> titles(String... titles) {
+        return new HashSet<>(Arrays.asList(titles));
+    }
+
+    private static Set<String> titlesOf(List<Book> books) {
+        Set<String> titles = new HashSet<>();
+        for (Book book : books) {
+            titles.add(book.getTitle());
+        }
+        return titles;
+    }
+}
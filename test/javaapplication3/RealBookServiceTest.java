@@ -0,0 +1,92 @@
+package javaapplication3;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RealBookServiceTest {
+    private Connection connection;
+    private RealBookService service;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:library", "sa", "");
+        execute("CREATE TABLE books (title VARCHAR(255), author VARCHAR(255), " +
+            "category VARCHAR(255), is_borrowed BOOLEAN DEFAULT FALSE)");
+        execute("CREATE TABLE borrowed_books (book_title VARCHAR(255), " +
+            "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+        execute("INSERT INTO books (title, author, category) VALUES ('A', 'Author', 'Management')");
+        service = new RealBookService(new ReadReplicaRouter(connection,
+            Collections.<String>emptyList(), "sa", "", 5000));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void borrowAppendsLoanHistory() throws SQLException {
+        execute("CREATE TABLE loan_history (book_title VARCHAR(255), " +
+            "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+
+        assertTrue(service.borrowBook("A", "Sara"));
+        assertTrue(service.returnBook("A", "Sara"));
+
+        // Returning deletes the active loan but keeps the history
+        assertEquals(0, count("borrowed_books"));
+        assertEquals(1, count("loan_history"));
+    }
+
+    @Test
+    public void failedHistoryInsertRollsBackTheBorrow() throws SQLException {
+        // No loan_history table, so the last statement of the borrow fails
+        try {
+            service.borrowBook("A", "Sara");
+            fail("Expected the borrow to fail");
+        } catch (SQLException expected) {
+        }
+
+        assertEquals(0, count("borrowed_books"));
+        assertTrue(service.isBookAvailable("A"));
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    public void borrowCommandFeedsRecommendations() throws SQLException {
+        execute("CREATE TABLE loan_history (book_title VARCHAR(255), " +
+            "user_name VARCHAR(255), borrow_date TIMESTAMP)");
+        execute("INSERT INTO books (title, author, category) VALUES ('B', 'Author', 'Management')");
+        RecommendationService recommendations = new RecommendationService();
+
+        assertTrue(new BorrowBookCommand(service, recommendations, "B", "Sara").execute());
+        assertTrue(new BorrowBookCommand(service, recommendations, "A", "Sara").execute());
+        // Already borrowed, so nothing reaches the model
+        assertFalse(new BorrowBookCommand(service, recommendations, "A", "Omar").execute());
+
+        assertEquals(Arrays.asList("B"), recommendations.recommend("A", 5));
+        assertEquals(2, count("loan_history"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}